@@ -3,6 +3,7 @@ class Child extends Person {
     private Parent parent1;
     private Parent parent2;
     private Child[] siblings; 
+    private int siblingCount;
 
     public Child(String name, int age, Parent par1, Parent par2) {
         super(name, age);
@@ -21,18 +22,48 @@ class Child extends Person {
     
     public void setSiblings(Child[] siblings) {
         this.siblings = siblings;
+        this.siblingCount = siblings == null ? 0 : siblings.length;
     }
     
     public Child[] getSiblings() {
-        return this.siblings;
+        // addSibling leaves spare room at the end, so unless the array is full hand out a fresh
+        // exact-size copy. Nothing is cached, so this is safe to call from several threads, but
+        // whether writes to the result reach this object depends on that, so treat it as read-only.
+        if (this.siblings == null || this.siblingCount == this.siblings.length) {
+            return this.siblings;
+        }
+        Child[] copy = new Child[this.siblingCount];
+        for (int i = 0; i < this.siblingCount; i++) {
+            copy[i] = this.siblings[i];
+        }
+        return copy;
+    }
+
+    // getSiblingCount() and getSibling(i) read the siblings without making an array
+    public Child getSibling(int i) {
+        if (i < 0 || i >= this.siblingCount) {
+            throw new IndexOutOfBoundsException("sibling " + i + " of " + this.siblingCount);
+        }
+        return this.siblings[i];
+    }
+
+    public int getSiblingCount() {
+        return this.siblingCount;
     }
 
     public void addSibling(Child child) {
-        Child[] newSiblings = new Child[this.siblings.length + 1];
-        for (int i = 0; i < this.siblings.length; i++) {
-            newSiblings[i] = this.siblings[i];
+        if (this.siblings == null) {
+            this.siblings = new Child[0];
+        }
+        // grow by doubling so adding many siblings in a row only copies the array a few times
+        if (this.siblingCount == this.siblings.length) {
+            Child[] newSiblings = new Child[Math.max(4, this.siblings.length * 2)];
+            for (int i = 0; i < this.siblingCount; i++) {
+                newSiblings[i] = this.siblings[i];
+            }
+            this.siblings = newSiblings;
         }
-        newSiblings[this.siblings.length] = child;
-        this.siblings = newSiblings;
+        this.siblings[this.siblingCount] = child;
+        this.siblingCount++;
     }
 }
\ No newline at end of file
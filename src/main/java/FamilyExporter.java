@@ -0,0 +1,214 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+class FamilyExporter {
+
+    private HashMap<Person, Integer> ids;
+    private ArrayList<Person> parents;
+    private ArrayList<Child> children;
+
+    // Collects everyone linked to the given people. Parents are generation 0 and
+    // children generation 1, so writing parents first keeps the output in generation order.
+    // A plain Person has no links and is exported in generation 0 on its own.
+    public FamilyExporter(Person[] people) {
+        this.ids = new HashMap<Person, Integer>();
+        this.parents = new ArrayList<Person>();
+        this.children = new ArrayList<Child>();
+
+        FamilyWalk.walk(people, (from, to) -> visit(to));
+
+        // number parents before children so ids also follow generation order
+        int id = 0;
+        for (int i = 0; i < this.parents.size(); i++) {
+            this.ids.put(this.parents.get(i), id++);
+        }
+        for (int i = 0; i < this.children.size(); i++) {
+            this.ids.put(this.children.get(i), id++);
+        }
+    }
+
+    public int getPeopleCount() {
+        return this.ids.size();
+    }
+
+    public void writeDot(Path file) throws IOException {
+        Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        try {
+            writeDot(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    public void writeJsonLines(Path file) throws IOException {
+        Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        try {
+            writeJsonLines(out);
+        } finally {
+            out.close();
+        }
+    }
+
+    // Writes a GraphViz digraph with one rank per generation. Pass a buffered Writer.
+    public void writeDot(Writer out) throws IOException {
+        out.write("digraph family {\n");
+
+        out.write("  { rank=same;\n");
+        for (int i = 0; i < this.parents.size(); i++) {
+            writeDotNode(out, this.parents.get(i));
+        }
+        out.write("  }\n");
+        out.write("  { rank=same;\n");
+        for (int i = 0; i < this.children.size(); i++) {
+            writeDotNode(out, this.children.get(i));
+        }
+        out.write("  }\n");
+
+        for (int i = 0; i < this.parents.size(); i++) {
+            if (!(this.parents.get(i) instanceof Parent)) {
+                continue;
+            }
+            Parent parent = (Parent) this.parents.get(i);
+            int id = this.ids.get(parent);
+            Integer spouse = this.ids.get(parent.getSpouse());
+            // only write a married couple once, from whichever has the lower id
+            if (spouse != null && (id < spouse || parent.getSpouse().getSpouse() != parent)) {
+                out.write("  p" + id + " -> p" + spouse + " [dir=none, style=dashed];\n");
+            }
+            for (int j = 0; j < parent.getChildCount(); j++) {
+                Integer child = this.ids.get(parent.getChild(j));
+                if (child != null) {
+                    out.write("  p" + id + " -> p" + child + ";\n");
+                }
+            }
+        }
+        out.write("}\n");
+        out.flush();
+    }
+
+    // Writes one JSON object per person, all of generation 0 before generation 1. Pass a buffered Writer.
+    public void writeJsonLines(Writer out) throws IOException {
+        for (int i = 0; i < this.parents.size(); i++) {
+            if (!(this.parents.get(i) instanceof Parent)) {
+                writeJsonStart(out, this.parents.get(i), 0);
+                out.write("}\n");
+                continue;
+            }
+            Parent parent = (Parent) this.parents.get(i);
+            writeJsonStart(out, parent, 0);
+            out.write(",\"spouse\":");
+            Integer spouse = this.ids.get(parent.getSpouse());
+            out.write(spouse == null ? "null" : spouse.toString());
+            out.write(",\"children\":[");
+            boolean first = true;
+            for (int j = 0; j < parent.getChildCount(); j++) {
+                first = writeJsonId(out, parent.getChild(j), first);
+            }
+            out.write("]}\n");
+        }
+        for (int i = 0; i < this.children.size(); i++) {
+            Child child = this.children.get(i);
+            writeJsonStart(out, child, 1);
+            out.write(",\"parents\":[");
+            writeJsonId(out, child.getParent2(), writeJsonId(out, child.getParent1(), true));
+            out.write("],\"siblings\":[");
+            boolean first = true;
+            for (int j = 0; j < child.getSiblingCount(); j++) {
+                first = writeJsonId(out, child.getSibling(j), first);
+            }
+            out.write("]}\n");
+        }
+        out.flush();
+    }
+
+    // returns true the first time a person is seen
+    private boolean visit(Person person) {
+        if (this.ids.containsKey(person)) {
+            return false;
+        }
+        // mark as seen now, the real ids are given out once everyone is found
+        this.ids.put(person, -1);
+        if (person instanceof Child) {
+            this.children.add((Child) person);
+        } else {
+            this.parents.add(person);
+        }
+        return true;
+    }
+
+    private void writeDotNode(Writer out, Person person) throws IOException {
+        out.write("    p" + this.ids.get(person) + " [label=\"");
+        writeDotEscaped(out, person.getName());
+        out.write("\"];\n");
+    }
+
+    private void writeJsonStart(Writer out, Person person, int generation) throws IOException {
+        out.write("{\"id\":" + this.ids.get(person) + ",\"name\":\"");
+        writeJsonEscaped(out, person.getName());
+        out.write("\",\"age\":" + person.getAge() + ",\"generation\":" + generation);
+    }
+
+    // writes one id of a JSON array, returning whether the array is still empty
+    private boolean writeJsonId(Writer out, Person person, boolean first) throws IOException {
+        Integer id = this.ids.get(person);
+        if (id == null) {
+            return first;
+        }
+        if (!first) {
+            out.write(',');
+        }
+        out.write(id.toString());
+        return false;
+    }
+
+    // Writes text with JSON string escapes, without the surrounding quotes. Shared with the
+    // query server in PracticeProblem so both write the same escapes.
+    static void writeJsonEscaped(Appendable out, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\');
+                out.append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else if (c == '\r') {
+                out.append("\\r");
+            } else if (c == '\t') {
+                out.append("\\t");
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    // DOT quoted strings only escape quotes, a backslash starts a label escape like \n,
+    // and there is no escape for other control characters so they become spaces
+    private void writeDotEscaped(Writer out, String text) throws IOException {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c == '\n') {
+                out.write("\\n");
+            } else if (c < 0x20) {
+                out.write(' ');
+            } else {
+                out.write(c);
+            }
+        }
+    }
+}
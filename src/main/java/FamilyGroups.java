@@ -0,0 +1,203 @@
+import java.util.HashMap;
+
+class FamilyGroups {
+
+    private HashMap<Person, Integer> index;
+    private int[] root;
+    private int[] size;
+    private String[] firstName;
+    private int[] visited;
+    private int walk;
+    private int count;
+    private int groups;
+
+    public FamilyGroups() {
+        this.index = new HashMap<Person, Integer>();
+        this.root = new int[16];
+        this.size = new int[16];
+        this.firstName = new String[16];
+        this.visited = new int[16];
+        this.walk = 0;
+        this.count = 0;
+        this.groups = 0;
+    }
+
+    public FamilyGroups(Person[] people) {
+        this();
+        // one walk for all of them, so a family passed in several times is only scanned once
+        scan(people);
+    }
+
+    // Adds the person and everyone linked to them, directly or through others. Every known
+    // person reached is scanned again, so after addChild/setSpouse/addSibling on anyone in a
+    // family, calling add() with any member of that family picks up the new links. Links are
+    // followed the way they are stored, so a spouse set on only one side is found from that
+    // side. The cost is the size of the family reached, so use it (or the constructor) to load
+    // people in bulk and link() to record one new link at a time. Groups only ever merge: a link
+    // removed later through setChildren/setSiblings/setSpouse is never undone here.
+    public void add(Person person) {
+        if (person != null) {
+            scan(new Person[] {person});
+        }
+    }
+
+    // Records one new link, such as the addChild/setSpouse/addSibling call just made, by joining
+    // the families of a and b. Nothing else is walked, so it costs about the same however big
+    // the families are. A person seen for the first time is only added on their own, so any links
+    // they already had must be added too (or picked up with add()).
+    public void link(Person a, Person b) {
+        if (a == null || b == null) {
+            throw new IllegalArgumentException("can't link to null");
+        }
+        union(indexOf(a), indexOf(b));
+    }
+
+    private void scan(Person[] people) {
+        this.walk++;
+        FamilyWalk.walk(people, (from, to) -> {
+            int id = indexOf(to);
+            if (from != null) {
+                union(this.index.get(from), id);
+            }
+            if (this.visited[id] == this.walk) {
+                return false;
+            }
+            this.visited[id] = this.walk;
+            return true;
+        });
+    }
+
+    // Returns an id shared by everyone in the same family, or -1 if the person was never added
+    public int getGroup(Person person) {
+        Integer id = this.index.get(person);
+        if (id == null) {
+            return -1;
+        }
+        return find(id);
+    }
+
+    public int getGroupSize(Person person) {
+        int group = getGroup(person);
+        if (group < 0) {
+            return 0;
+        }
+        return this.size[group];
+    }
+
+    // Returns the alphabetically first name in the person's family, or null if the person was
+    // never added. It depends only on who is in the family, not on the order they were added, and
+    // only changes when the family merges with another. Names are read when a person is first added.
+    public String getFamilyName(Person person) {
+        int group = getGroup(person);
+        if (group < 0) {
+            return null;
+        }
+        return this.firstName[group];
+    }
+
+    // Splits people across shardCount shards so a whole family always lands on the same one, or
+    // returns -1 if the person was never added. The shard comes from a mixed hash of
+    // getFamilyName(), so families of any size spread evenly whatever order they were added in.
+    public int getShard(Person person, int shardCount) {
+        if (shardCount <= 0) {
+            throw new IllegalArgumentException("shardCount must be positive");
+        }
+        String name = getFamilyName(person);
+        if (name == null) {
+            return -1;
+        }
+        return Math.floorMod(mix(name.hashCode()), shardCount);
+    }
+
+    public boolean sameFamily(Person a, Person b) {
+        int group = getGroup(a);
+        return group >= 0 && group == getGroup(b);
+    }
+
+    public int getGroupCount() {
+        return this.groups;
+    }
+
+    public int getPeopleCount() {
+        return this.count;
+    }
+
+    public int getLargestGroupSize() {
+        int largest = 0;
+        for (int i = 0; i < this.count; i++) {
+            if (this.root[i] == i && this.size[i] > largest) {
+                largest = this.size[i];
+            }
+        }
+        return largest;
+    }
+
+    private int indexOf(Person person) {
+        Integer id = this.index.get(person);
+        if (id != null) {
+            return id;
+        }
+        if (this.count == this.root.length) {
+            int[] newRoot = new int[this.root.length * 2];
+            int[] newSize = new int[this.size.length * 2];
+            String[] newFirstName = new String[this.firstName.length * 2];
+            int[] newVisited = new int[this.visited.length * 2];
+            for (int i = 0; i < this.count; i++) {
+                newRoot[i] = this.root[i];
+                newSize[i] = this.size[i];
+                newFirstName[i] = this.firstName[i];
+                newVisited[i] = this.visited[i];
+            }
+            this.root = newRoot;
+            this.size = newSize;
+            this.firstName = newFirstName;
+            this.visited = newVisited;
+        }
+        this.root[this.count] = this.count;
+        this.size[this.count] = 1;
+        this.firstName[this.count] = person.getName() == null ? "" : person.getName();
+        this.visited[this.count] = 0;
+        this.index.put(person, this.count);
+        this.groups++;
+        return this.count++;
+    }
+
+    private int find(int id) {
+        while (this.root[id] != id) {
+            // point every other node at its grandparent so later finds are shorter
+            this.root[id] = this.root[this.root[id]];
+            id = this.root[id];
+        }
+        return id;
+    }
+
+    private void union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b) {
+            return;
+        }
+        if (this.size[a] < this.size[b]) {
+            int temp = a;
+            a = b;
+            b = temp;
+        }
+        this.root[b] = a;
+        this.size[a] += this.size[b];
+        if (this.firstName[b].compareTo(this.firstName[a]) < 0) {
+            this.firstName[a] = this.firstName[b];
+        }
+        this.groups--;
+    }
+
+    // String.hashCode() of similar names differs mostly in the low bits, so spread every
+    // bit before taking a remainder (the MurmurHash3 finalizer)
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,42 @@
+import java.util.ArrayList;
+import java.util.function.BiPredicate;
+
+class FamilyWalk {
+
+    // Walks everyone linked to the given people, directly or through others. Links are followed
+    // the way they are stored: a Parent's spouse and children, a Child's parents and siblings.
+    // reach.test(from, to) is called for each start (with from null) and for every link of
+    // everyone walked, skipping nulls. It returns true the first time it sees to, and only then
+    // are to's links walked in turn.
+    public static void walk(Person[] people, BiPredicate<Person, Person> reach) {
+        // a list instead of recursion so big families can't overflow the stack
+        ArrayList<Person> todo = new ArrayList<Person>();
+        for (int i = 0; i < people.length; i++) {
+            follow(null, people[i], reach, todo);
+        }
+        while (!todo.isEmpty()) {
+            Person next = todo.remove(todo.size() - 1);
+            if (next instanceof Parent) {
+                Parent parent = (Parent) next;
+                follow(next, parent.getSpouse(), reach, todo);
+                for (int i = 0; i < parent.getChildCount(); i++) {
+                    follow(next, parent.getChild(i), reach, todo);
+                }
+            }
+            if (next instanceof Child) {
+                Child child = (Child) next;
+                follow(next, child.getParent1(), reach, todo);
+                follow(next, child.getParent2(), reach, todo);
+                for (int i = 0; i < child.getSiblingCount(); i++) {
+                    follow(next, child.getSibling(i), reach, todo);
+                }
+            }
+        }
+    }
+
+    private static void follow(Person from, Person to, BiPredicate<Person, Person> reach, ArrayList<Person> todo) {
+        if (to != null && reach.test(from, to)) {
+            todo.add(to);
+        }
+    }
+}
@@ -1,13 +1,305 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 class Notes {
-	public static void main(String args[]) {
-		Rectangle rect = new Rectangle(15, 20);
+	public static void main(String args[]) throws IOException {
+		if (args.length == 0) {
+			Rectangle rect = new Rectangle(15, 20);
+
+			System.out.println(rect.getWidth());
+
+			RectPrism r = new RectPrism(1, 2, 3);
+
+			System.out.println(r.getWidth());
+			System.out.println(r.getLength());
+			System.out.println(r.getHeight());
+			return;
+		}
+
+		//java Notes input.csv [output.txt]
+		//  each line is "length,width" (area) or "length,width,height" (volume)
+		//java Notes --binary <2|3> input.bin [output.txt]
+		//  fixed-width records of 2 or 3 big-endian 4 byte ints
+		int fields = 0;
+		int first = 0;
+		if (args[0].equals("--binary")) {
+			if (args.length < 3 || !(args[1].equals("2") || args[1].equals("3"))) {
+				System.err.println("usage: java Notes --binary <2|3> input.bin [output.txt]");
+				return;
+			}
+			fields = Integer.parseInt(args[1]);
+			first = 2;
+		}
+
+		long start = System.nanoTime();
+		long bytes;
+		long shapes;
+		FileChannel in = FileChannel.open(Paths.get(args[first]), StandardOpenOption.READ);
+		try {
+			OutputStream out = new BufferedOutputStream(args.length > first + 1 ? new FileOutputStream(args[first + 1]) : System.out, 1 << 16);
+			try {
+				bytes = in.size();
+				if (fields == 0) {
+					shapes = convertCsv(in, out, System.err);
+				} else {
+					shapes = convertBinary(in, fields, out, System.err);
+				}
+			} finally {
+				out.flush();
+				if (args.length > first + 1) {
+					out.close();
+				}
+			}
+		} finally {
+			in.close();
+		}
 
-		System.out.println(rect.getWidth());
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.err.println(shapes + " shapes, " + bytes + " bytes in " + seconds + " s ("
+				+ (long) (bytes / 1048576.0 / seconds) + " MB/s)");
+	}
+
+	//Writes the area or volume of each csv line to out, one per line, and returns how many were written.
+	//Blank lines are skipped, bad lines are skipped and reported to errors with their line number.
+	public static long convertCsv(FileChannel in, OutputStream out, PrintStream errors) throws IOException {
+		return convertCsv(in, out, errors, 1 << 24);
+	}
+
+	//The file is cut into chunks of about chunkSize bytes that end on a newline, the chunks are parsed
+	//in parallel on the common ForkJoinPool, and their results are written back in file order.
+	static long convertCsv(FileChannel in, OutputStream out, PrintStream errors, int chunkSize) throws IOException {
+		long size = in.size();
+		int maxInFlight = Runtime.getRuntime().availableProcessors() * 2;
+		ArrayDeque<Future<CsvChunk>> inFlight = new ArrayDeque<Future<CsvChunk>>();
+		long shapes = 0;
+		long lines = 0;
+		long start = 0;
+		while (start < size || !inFlight.isEmpty()) {
+			if (start < size && inFlight.size() < maxInFlight) {
+				long end = nextLineStart(in, Math.min(start + chunkSize, size), size);
+				inFlight.add(ForkJoinPool.commonPool().submit(new CsvChunk(in, start, end, chunkSize)));
+				start = end;
+				continue;
+			}
+			CsvChunk chunk = await(inFlight.remove());
+			chunk.output.writeTo(out);
+			for (int i = 0; i < chunk.errorLines.size(); i++) {
+				errors.println("line " + (lines + chunk.errorLines.get(i)) + ": " + chunk.errorMessages.get(i) + ", skipped");
+			}
+			shapes += chunk.shapes;
+			lines += chunk.lines;
+		}
+		return shapes;
+	}
 
-		RectPrism r = new RectPrism(1, 2, 3);
+	//returns the position just after the next newline at or after pos, or size if there isn't one
+	private static long nextLineStart(FileChannel in, long pos, long size) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+		while (pos < size) {
+			buffer.clear();
+			int read = in.read(buffer, pos);
+			if (read < 0) {
+				break;
+			}
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return pos + i + 1;
+				}
+			}
+			pos += read;
+		}
+		return size;
+	}
+
+	private static CsvChunk await(Future<CsvChunk> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("interrupted while parsing");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		}
+	}
+
+	//Parses the lines in [start, end) of the file straight from mapped bytes, so no String is made for
+	//each line. Error line numbers count from 1 at the start of the chunk.
+	private static class CsvChunk implements Callable<CsvChunk> {
+		private FileChannel in;
+		private long start;
+		private long end;
+		private int window;
+		private ByteArrayOutputStream output = new ByteArrayOutputStream();
+		private ArrayList<Long> errorLines = new ArrayList<Long>();
+		private ArrayList<String> errorMessages = new ArrayList<String>();
+		private long lines;
+		private long shapes;
+
+		CsvChunk(FileChannel in, long start, long end, int window) {
+			this.in = in;
+			this.start = start;
+			this.end = end;
+			this.window = window;
+		}
+
+		public CsvChunk call() throws IOException {
+			byte[] digits = new byte[20];
+			long[] dims = new long[3];
+			int count = 0;
+			long value = 0;
+			boolean inNumber = false;
+			String error = null;
+			//a chunk can be longer than one mapping when a single line is huge, so map it a window at a time
+			MappedByteBuffer map = null;
+			long pos = this.start;
+			while (true) {
+				int b;
+				if (map == null || !map.hasRemaining()) {
+					if (pos < this.end) {
+						long length = Math.min(this.window, this.end - pos);
+						map = this.in.map(FileChannel.MapMode.READ_ONLY, pos, length);
+						pos += length;
+						continue;
+					}
+					b = -1;
+				} else {
+					b = map.get() & 0xff;
+				}
+
+				if (b == '\n' || b < 0) {
+					if (error == null && inNumber) {
+						if (count == dims.length) {
+							error = "more than 3 numbers";
+						} else {
+							dims[count++] = value;
+						}
+					} else if (error == null && count > 0) {
+						error = "missing number";
+					}
+					if (error == null && count == 1) {
+						error = "expected 2 or 3 numbers";
+					}
+					if (error == null && count == 2) {
+						writeNumber(this.output, new Rectangle((int) dims[0], (int) dims[1]).getArea(), digits);
+						this.shapes++;
+					} else if (error == null && count == 3) {
+						try {
+							writeNumber(this.output, new RectPrism((int) dims[0], (int) dims[1], (int) dims[2]).getVolume(), digits);
+							this.shapes++;
+						} catch (ArithmeticException e) {
+							error = "volume too large";
+						}
+					}
+					if (error != null) {
+						this.errorLines.add(this.lines + 1);
+						this.errorMessages.add(error);
+					}
+					if (b < 0) {
+						break;
+					}
+					this.lines++;
+					count = 0;
+					value = 0;
+					inNumber = false;
+					error = null;
+				} else if (error != null || b == '\r') {
+					//ignore the rest of a bad line, and the \r of a \r\n
+				} else if (b >= '0' && b <= '9') {
+					value = value * 10 + (b - '0');
+					inNumber = true;
+					if (value > Integer.MAX_VALUE) {
+						error = "number too large";
+					}
+				} else if (b == ',') {
+					if (!inNumber) {
+						error = "missing number";
+					} else if (count == dims.length) {
+						error = "more than 3 numbers";
+					} else {
+						dims[count++] = value;
+					}
+					value = 0;
+					inNumber = false;
+				} else {
+					error = "unexpected character '" + (char) b + "'";
+				}
+			}
+			return this;
+		}
+	}
+
+	//Same as convertCsv but for fixed-width records of 2 (area) or 3 (volume) big-endian ints.
+	//The file is memory-mapped a window at a time since one mapping can't be over 2GB.
+	public static long convertBinary(FileChannel in, int fields, OutputStream out, PrintStream errors) throws IOException {
+		int recordSize = fields * 4;
+		long size = in.size();
+		long records = size / recordSize;
+		long window = (1L << 26) / recordSize;
+		byte[] digits = new byte[20];
+		long shapes = 0;
+		for (long record = 0; record < records; record += window) {
+			long count = Math.min(window, records - record);
+			MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, record * recordSize, count * recordSize);
+			for (long i = 0; i < count; i++) {
+				int length = map.getInt();
+				int width = map.getInt();
+				int height = fields == 3 ? map.getInt() : 0;
+				if (length < 0 || width < 0 || height < 0) {
+					errors.println("record " + (record + i + 1) + ": negative dimension, skipped");
+				} else if (fields == 2) {
+					writeNumber(out, new Rectangle(length, width).getArea(), digits);
+					shapes++;
+				} else {
+					try {
+						writeNumber(out, new RectPrism(length, width, height).getVolume(), digits);
+						shapes++;
+					} catch (ArithmeticException e) {
+						errors.println("record " + (record + i + 1) + ": volume too large, skipped");
+					}
+				}
+			}
+		}
+		if (size % recordSize != 0) {
+			errors.println("last " + (size % recordSize) + " bytes are not a whole record, skipped");
+		}
+		return shapes;
+	}
 
-		System.out.println(r.getWidth());
-		System.out.println(r.getLength());
-		System.out.println(r.getHeight());
+	//writes the digits of n and a newline without going through a String
+	static void writeNumber(OutputStream out, long n, byte[] digits) throws IOException {
+		//work with the negative value since Long.MIN_VALUE has no positive version
+		boolean negative = n < 0;
+		if (!negative) {
+			n = -n;
+		}
+		int pos = digits.length;
+		do {
+			digits[--pos] = (byte) ('0' - n % 10);
+			n /= 10;
+		} while (n != 0);
+		if (negative) {
+			digits[--pos] = '-';
+		}
+		out.write(digits, pos, digits.length - pos);
+		out.write('\n');
 	}
 }
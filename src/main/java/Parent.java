@@ -3,6 +3,7 @@ class Parent extends Person {
 
     private Parent spouse;
     private Child[] children;
+    private int childCount;
 
     public Parent(String name, int age) {
         super(name, age);
@@ -25,19 +26,49 @@ class Parent extends Person {
     }
 
     public Child[] getChildren() {
-        return this.children;
+        // addChild leaves spare room at the end, so unless the array is full hand out a fresh
+        // exact-size copy. Nothing is cached, so this is safe to call from several threads, but
+        // whether writes to the result reach this object depends on that, so treat it as read-only.
+        if (this.children == null || this.childCount == this.children.length) {
+            return this.children;
+        }
+        Child[] copy = new Child[this.childCount];
+        for (int i = 0; i < this.childCount; i++) {
+            copy[i] = this.children[i];
+        }
+        return copy;
+    }
+
+    // getChildCount() and getChild(i) read the children without making an array
+    public Child getChild(int i) {
+        if (i < 0 || i >= this.childCount) {
+            throw new IndexOutOfBoundsException("child " + i + " of " + this.childCount);
+        }
+        return this.children[i];
+    }
+
+    public int getChildCount() {
+        return this.childCount;
     }
 
     public void setChildren(Child[] children) {
         this.children = children;
+        this.childCount = children == null ? 0 : children.length;
     }
 
     public void addChild(Child child){
-        Child[] newChildren = new Child[this.children.length + 1];
-        for (int i = 0; i < this.children.length; i++) {
-            newChildren[i] = children[i];
+        if (this.children == null) {
+            this.children = new Child[0];
+        }
+        // grow by doubling so adding many children in a row only copies the array a few times
+        if (this.childCount == this.children.length) {
+            Child[] newChildren = new Child[Math.max(4, this.children.length * 2)];
+            for (int i = 0; i < this.childCount; i++) {
+                newChildren[i] = this.children[i];
+            }
+            this.children = newChildren;
         }
-        newChildren[this.children.length] = child;
-        this.children = newChildren;
+        this.children[this.childCount] = child;
+        this.childCount++;
     }
 }
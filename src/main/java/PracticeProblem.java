@@ -1,9 +1,407 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class PracticeProblem {
 
-	public static void main(String args[]) {
+	public static final String QUERIES = "person|spouse|children|siblings|parents|ancestors|kinship";
+
+	public static void main(String args[]) throws IOException {
+		//java PracticeProblem [--file family.csv] <query> <name> [other name]
+		//java PracticeProblem [--file family.csv] --serve <port>
+		int first = 0;
+		Map<String, Person> people;
+		if (args.length >= 2 && args[0].equals("--file")) {
+			BufferedReader in = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8);
+			try {
+				people = load(in);
+			} finally {
+				in.close();
+			}
+			first = 2;
+		} else {
+			people = sampleFamily();
+		}
+
+		if (args.length >= first + 2 && args[first].equals("--serve")) {
+			HttpServer server = startServer(people, Integer.parseInt(args[first + 1]), Runtime.getRuntime().availableProcessors() * 2);
+			System.out.println("listening on http://localhost:" + server.getAddress().getPort() + "/query?type=children&name=...");
+			return;
+		}
+		if (args.length < first + 2) {
+			System.out.println("usage: java PracticeProblem [--file family.csv] <" + QUERIES + "> <name> [other name]");
+			System.out.println("       java PracticeProblem [--file family.csv] --serve <port>");
+			return;
+		}
+		try {
+			List<String> result = query(people, args[first], args[first + 1], args.length > first + 2 ? args[first + 2] : null);
+			System.out.println(String.join(", ", result));
+		} catch (IllegalArgumentException e) {
+			System.out.println(e.getMessage());
+		}
+	}
+
+	public static Map<String, Person> sampleFamily() {
+		Parent john = new Parent("John", 35);
+		Parent mary = new Parent("Mary", 32, john);
+		john.setSpouse(mary);
+
+		Child baby = new Child("Baby", 1, john, mary);
+		Child tom = new Child("Tom", 5, john, mary);
+		john.addChild(baby);
+		john.addChild(tom);
+		mary.addChild(baby);
+		mary.addChild(tom);
+		baby.addSibling(tom);
+		tom.addSibling(baby);
+
+		//look people up by name so each query is one map lookup instead of a search
+		Map<String, Person> people = new HashMap<String, Person>();
+		people.put(john.getName(), john);
+		people.put(mary.getName(), mary);
+		people.put(baby.getName(), baby);
+		people.put(tom.getName(), tom);
+		return people;
+	}
+
+	//Reads a family from lines of "parent,name,age[,spouse]" and "child,name,age,parent1,parent2"
+	//(either parent may be left empty). Children are added to their parents and children who share
+	//a parent are made siblings.
+	public static Map<String, Person> load(BufferedReader in) throws IOException {
+		ArrayList<String[]> childLines = new ArrayList<String[]>();
+		ArrayList<String[]> spouseLines = new ArrayList<String[]>();
+		Map<String, Person> people = new HashMap<String, Person>();
+		String line;
+		int number = 0;
+		while ((line = in.readLine()) != null) {
+			number++;
+			if (line.trim().isEmpty()) {
+				continue;
+			}
+			String[] parts = line.split(",", -1);
+			if (parts.length < 3) {
+				throw new IllegalArgumentException("line " + number + ": expected at least kind,name,age");
+			}
+			int age;
+			try {
+				age = Integer.parseInt(parts[2].trim());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("line " + number + ": bad age " + parts[2]);
+			}
+			String name = parts[1].trim();
+			if (people.containsKey(name)) {
+				throw new IllegalArgumentException("line " + number + ": " + name + " is listed twice");
+			}
+			if (parts[0].trim().equals("parent") && parts.length <= 4) {
+				people.put(name, new Parent(name, age));
+				if (parts.length == 4 && !parts[3].trim().isEmpty()) {
+					spouseLines.add(new String[] {name, parts[3].trim(), String.valueOf(number)});
+				}
+			} else if (parts[0].trim().equals("child") && parts.length == 5) {
+				childLines.add(new String[] {name, parts[2].trim(), parts[3].trim(), parts[4].trim(), String.valueOf(number)});
+				people.put(name, null);
+			} else {
+				throw new IllegalArgumentException("line " + number + ": expected parent,name,age[,spouse] or child,name,age,parent1,parent2");
+			}
+		}
+
+		//parents have to exist before their spouses and children can point at them
+		for (int i = 0; i < spouseLines.size(); i++) {
+			String[] spouse = spouseLines.get(i);
+			((Parent) people.get(spouse[0])).setSpouse(findParent(people, spouse[1], spouse[2]));
+		}
+		ArrayList<Child> children = new ArrayList<Child>();
+		for (int i = 0; i < childLines.size(); i++) {
+			String[] parts = childLines.get(i);
+			Parent parent1 = findParent(people, parts[2], parts[4]);
+			Parent parent2 = findParent(people, parts[3], parts[4]);
+			Child child = new Child(parts[0], Integer.parseInt(parts[1]), parent1, parent2);
+			if (parent1 != null) {
+				parent1.addChild(child);
+			}
+			if (parent2 != null && parent2 != parent1) {
+				parent2.addChild(child);
+			}
+			people.put(child.getName(), child);
+			children.add(child);
+		}
+		for (int i = 0; i < children.size(); i++) {
+			Child child = children.get(i);
+			LinkedHashSet<Child> siblings = new LinkedHashSet<Child>();
+			addAll(siblings, child.getParent1());
+			addAll(siblings, child.getParent2());
+			siblings.remove(child);
+			child.setSiblings(siblings.toArray(new Child[siblings.size()]));
+		}
+		return people;
+	}
+
+	private static Parent findParent(Map<String, Person> people, String name, String line) {
+		if (name.isEmpty()) {
+			return null;
+		}
+		Person person = people.get(name);
+		if (!(person instanceof Parent)) {
+			throw new IllegalArgumentException("line " + line + ": " + name + " is not a parent");
+		}
+		return (Parent) person;
+	}
+
+	private static void addAll(LinkedHashSet<Child> siblings, Parent parent) {
+		if (parent == null) {
+			return;
+		}
+		for (int i = 0; i < parent.getChildCount(); i++) {
+			siblings.add(parent.getChild(i));
+		}
+	}
+
+	//Answers one query about name. kinship needs other and answers with how name is related to other:
+	//self, spouse, parent, child, sibling, half-sibling, co-parent, related or not related.
+	//Throws UnknownPersonException for unknown names and IllegalArgumentException for bad query types.
+	public static List<String> query(Map<String, Person> people, String type, String name, String other) {
+		Person person = find(people, name);
+		List<String> result = new ArrayList<String>();
+		if (type.equals("person")) {
+			result.add(person.getName() + " " + person.getAge());
+		} else if (type.equals("spouse")) {
+			if (person instanceof Parent && ((Parent) person).getSpouse() != null) {
+				result.add(((Parent) person).getSpouse().getName());
+			}
+		} else if (type.equals("children")) {
+			if (person instanceof Parent) {
+				addNames(result, ((Parent) person).getChildren());
+			}
+		} else if (type.equals("siblings")) {
+			if (person instanceof Child) {
+				addNames(result, ((Child) person).getSiblings());
+			}
+		} else if (type.equals("parents")) {
+			if (person instanceof Child) {
+				Child child = (Child) person;
+				addNames(result, new Person[] {child.getParent1(), child.getParent2()});
+			}
+		} else if (type.equals("ancestors")) {
+			addAncestors(result, person);
+		} else if (type.equals("kinship")) {
+			if (other == null) {
+				throw new IllegalArgumentException("kinship needs a second name");
+			}
+			result.add(kinship(person, find(people, other)));
+		} else {
+			throw new IllegalArgumentException("unknown query " + type + ", expected " + QUERIES);
+		}
+		return result;
+	}
+
+	public static List<String> query(Map<String, Person> people, String type, String name) {
+		return query(people, type, name, null);
+	}
+
+	private static Person find(Map<String, Person> people, String name) {
+		Person person = people.get(name);
+		if (person == null) {
+			throw new UnknownPersonException(name);
+		}
+		return person;
+	}
+
+	private static void addNames(List<String> result, Person[] people) {
+		for (int i = 0; i < people.length; i++) {
+			if (people[i] != null) {
+				result.add(people[i].getName());
+			}
+		}
+	}
+
+	//nearest generation first, using a list instead of recursion
+	private static void addAncestors(List<String> result, Person person) {
+		ArrayList<Person> todo = new ArrayList<Person>();
+		LinkedHashSet<Person> seen = new LinkedHashSet<Person>();
+		todo.add(person);
+		for (int i = 0; i < todo.size(); i++) {
+			if (!(todo.get(i) instanceof Child)) {
+				continue;
+			}
+			Child child = (Child) todo.get(i);
+			Parent[] parents = {child.getParent1(), child.getParent2()};
+			for (int j = 0; j < parents.length; j++) {
+				if (parents[j] != null && seen.add(parents[j])) {
+					todo.add(parents[j]);
+					result.add(parents[j].getName());
+				}
+			}
+		}
+	}
+
+	private static String kinship(Person a, Person b) {
+		if (a == b) {
+			return "self";
+		}
+		if (a instanceof Parent && b instanceof Parent) {
+			Parent pa = (Parent) a;
+			Parent pb = (Parent) b;
+			if (pa.getSpouse() == pb || pb.getSpouse() == pa) {
+				return "spouse";
+			}
+			if (shareChild(pa, pb)) {
+				return "co-parent";
+			}
+		} else if (a instanceof Parent && b instanceof Child) {
+			if (isParentOf((Parent) a, (Child) b)) {
+				return "parent";
+			}
+		} else if (a instanceof Child && b instanceof Parent) {
+			if (isParentOf((Parent) b, (Child) a)) {
+				return "child";
+			}
+		} else if (a instanceof Child && b instanceof Child) {
+			Child ca = (Child) a;
+			Child cb = (Child) b;
+			int shared = 0;
+			if (ca.getParent1() != null && (ca.getParent1() == cb.getParent1() || ca.getParent1() == cb.getParent2())) {
+				shared++;
+			}
+			if (ca.getParent2() != null && ca.getParent2() != ca.getParent1()
+					&& (ca.getParent2() == cb.getParent1() || ca.getParent2() == cb.getParent2())) {
+				shared++;
+			}
+			if (shared == 2) {
+				return "sibling";
+			}
+			if (shared == 1) {
+				return "half-sibling";
+			}
+			if (isSiblingOf(ca, cb)) {
+				return "sibling";
+			}
+		}
+		return new FamilyGroups(new Person[] {a}).sameFamily(a, b) ? "related" : "not related";
+	}
+
+	private static boolean isParentOf(Parent parent, Child child) {
+		if (child.getParent1() == parent || child.getParent2() == parent) {
+			return true;
+		}
+		for (int i = 0; i < parent.getChildCount(); i++) {
+			if (parent.getChild(i) == child) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean isSiblingOf(Child a, Child b) {
+		for (int i = 0; i < a.getSiblingCount(); i++) {
+			if (a.getSibling(i) == b) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean shareChild(Parent a, Parent b) {
+		for (int i = 0; i < a.getChildCount(); i++) {
+			if (isParentOf(b, a.getChild(i))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	//GET /query?type=children&name=John[&other=Mary] answers {"result":[...]} or {"error":"..."}.
+	//Requests are handled on a fixed pool of threads. Port 0 picks a free port. Stop it with stopServer().
+	public static HttpServer startServer(final Map<String, Person> people, int port, int threads) throws IOException {
+		HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+		server.createContext("/query", exchange -> handle(people, exchange));
+		//daemon threads so an idle pool never keeps the JVM running, the server's own thread does that
+		server.setExecutor(Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "query-server");
+			thread.setDaemon(true);
+			return thread;
+		}));
+		server.start();
+		return server;
+	}
 
+	//HttpServer.stop() leaves its executor running, so shut the pool down too
+	public static void stopServer(HttpServer server, int delaySeconds) {
+		server.stop(delaySeconds);
+		((ExecutorService) server.getExecutor()).shutdown();
 	}
 
-	
+	private static void handle(Map<String, Person> people, HttpExchange exchange) throws IOException {
+		int status = 200;
+		StringBuilder json = new StringBuilder();
+		try {
+			Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+			String type = params.get("type");
+			String name = params.get("name");
+			if (type == null || name == null) {
+				throw new IllegalArgumentException("type and name are required");
+			}
+			List<String> result = query(people, type, name, params.get("other"));
+			json.append("{\"result\":[");
+			for (int i = 0; i < result.size(); i++) {
+				if (i > 0) {
+					json.append(',');
+				}
+				appendJsonString(json, result.get(i));
+			}
+			json.append("]}");
+		} catch (IllegalArgumentException e) {
+			status = e instanceof UnknownPersonException ? 404 : 400;
+			json.setLength(0);
+			json.append("{\"error\":");
+			appendJsonString(json, e.getMessage() == null ? "bad request" : e.getMessage());
+			json.append('}');
+		}
+		byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		try {
+			out.write(body);
+		} finally {
+			out.close();
+		}
+	}
+
+	private static Map<String, String> parseQuery(String query) throws UnsupportedEncodingException {
+		Map<String, String> params = new HashMap<String, String>();
+		if (query == null) {
+			return params;
+		}
+		String[] pairs = query.split("&");
+		for (int i = 0; i < pairs.length; i++) {
+			int equals = pairs[i].indexOf('=');
+			if (equals > 0) {
+				params.put(URLDecoder.decode(pairs[i].substring(0, equals), "UTF-8"),
+						URLDecoder.decode(pairs[i].substring(equals + 1), "UTF-8"));
+			}
+		}
+		return params;
+	}
+
+	private static void appendJsonString(StringBuilder json, String text) throws IOException {
+		json.append('"');
+		FamilyExporter.writeJsonEscaped(json, text);
+		json.append('"');
+	}
 
 }
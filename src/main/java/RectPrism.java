@@ -50,5 +50,11 @@ class RectPrism extends Rectangle { //add inhertiance to the class by using the
 		this.height = height;
 	}
 
+	//getArea() is inherited, so the volume is just the base times the height
+	//throws ArithmeticException if the volume doesn't fit in a long
+	public long getVolume() {
+		return Math.multiplyExact(getArea(), (long) this.height);
+	}
+
 	
 }
\ No newline at end of file
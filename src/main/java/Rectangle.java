@@ -26,4 +26,9 @@ class Rectangle {
 	public void setLength(int length) {
 		this.length = length;
 	}
+
+	//long so two big sides can't overflow
+	public long getArea() {
+		return (long) this.length * this.width;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+class UnknownPersonException extends IllegalArgumentException {
+
+    private String name;
+
+    public UnknownPersonException(String name) {
+        super("no person named " + name);
+        this.name = name;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+}
@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Tests for the DOT and JSON-lines output of FamilyExporter
+ */
+class FamilyExporterTest extends FamilyFixture {
+
+    @TempDir
+    Path tempDir;
+
+    protected String dot(FamilyExporter exporter) throws IOException {
+        StringWriter out = new StringWriter();
+        exporter.writeDot(out);
+        return out.toString();
+    }
+
+    protected String jsonLines(FamilyExporter exporter) throws IOException {
+        StringWriter out = new StringWriter();
+        exporter.writeJsonLines(out);
+        return out.toString();
+    }
+
+    @Test
+    public void testDot() throws IOException {
+        marry();
+        FamilyExporter exporter = new FamilyExporter(new Person[] {this.john});
+        assertEquals(4, exporter.getPeopleCount());
+        assertEquals("digraph family {\n"
+                + "  { rank=same;\n"
+                + "    p0 [label=\"John\"];\n"
+                + "    p1 [label=\"Mary\"];\n"
+                + "  }\n"
+                + "  { rank=same;\n"
+                + "    p2 [label=\"Baby\"];\n"
+                + "    p3 [label=\"Tom\"];\n"
+                + "  }\n"
+                + "  p0 -> p1 [dir=none, style=dashed];\n"
+                + "  p0 -> p2;\n"
+                + "  p0 -> p3;\n"
+                + "  p1 -> p2;\n"
+                + "  p1 -> p3;\n"
+                + "}\n", dot(exporter));
+    }
+
+    @Test
+    public void testJsonLines() throws IOException {
+        marry();
+        FamilyExporter exporter = new FamilyExporter(new Person[] {this.john});
+        assertEquals("{\"id\":0,\"name\":\"John\",\"age\":35,\"generation\":0,\"spouse\":1,\"children\":[2,3]}\n"
+                + "{\"id\":1,\"name\":\"Mary\",\"age\":32,\"generation\":0,\"spouse\":0,\"children\":[2,3]}\n"
+                + "{\"id\":2,\"name\":\"Baby\",\"age\":1,\"generation\":1,\"parents\":[0,1],\"siblings\":[3]}\n"
+                + "{\"id\":3,\"name\":\"Tom\",\"age\":5,\"generation\":1,\"parents\":[0,1],\"siblings\":[2]}\n",
+                jsonLines(exporter));
+    }
+
+    @Test
+    public void testSpouseWrittenOnce() throws IOException {
+        marry();
+        String dot = dot(new FamilyExporter(new Person[] {this.baby}));
+        assertEquals(1, dot.split("dir=none", -1).length - 1, "A married couple should be one edge");
+
+        // a spouse set on only one side is still drawn, from the side that has it
+        this.zed.setSpouse(this.sue);
+        dot = dot(new FamilyExporter(new Person[] {this.sue, this.zed}));
+        assertTrue(dot.contains("p1 -> p0 [dir=none, style=dashed];"), dot);
+        assertEquals(1, dot.split("dir=none", -1).length - 1, dot);
+    }
+
+    @Test
+    public void testEscaping() throws IOException {
+        Parent odd = new Parent("A \"B\" \\ C\nD\tE\u0001", 1);
+        FamilyExporter exporter = new FamilyExporter(new Person[] {odd});
+        assertTrue(jsonLines(exporter).contains("\"name\":\"A \\\"B\\\" \\\\ C\\nD\\tE\\u0001\""), jsonLines(exporter));
+        assertTrue(dot(exporter).contains("[label=\"A \\\"B\\\" \\\\ C\\nD E \"]"), dot(exporter));
+    }
+
+    @Test
+    public void testPlainPerson() throws IOException {
+        Person person = new Person("Pat", 20);
+        FamilyExporter exporter = new FamilyExporter(new Person[] {person, null});
+        assertEquals(1, exporter.getPeopleCount());
+        assertEquals("{\"id\":0,\"name\":\"Pat\",\"age\":20,\"generation\":0}\n", jsonLines(exporter));
+        assertTrue(dot(exporter).contains("p0 [label=\"Pat\"];"), dot(exporter));
+    }
+
+    @Test
+    public void testWriteToFile() throws IOException {
+        marry();
+        FamilyExporter exporter = new FamilyExporter(new Person[] {this.tom});
+        Path file = this.tempDir.resolve("family.jsonl");
+        exporter.writeJsonLines(file);
+        assertEquals(jsonLines(exporter), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        file = this.tempDir.resolve("family.dot");
+        exporter.writeDot(file);
+        assertEquals(dot(exporter), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * The family shared by the FamilyGroups and FamilyExporter tests, made fresh for every test
+ */
+abstract class FamilyFixture {
+
+    protected Parent john = new Parent("John", 35);
+    protected Parent mary = new Parent("Mary", 32, john);
+    protected Child baby = new Child("Baby", 1, john, mary);
+    protected Child tom = new Child("Tom", 5, john, mary);
+    protected Parent sue = new Parent("Sue", 40);
+    protected Parent zed = new Parent("Zed", 50);
+
+    /**
+     * Links John, Mary, Baby and Tom into one family the way the assignment does
+     */
+    protected void marry() {
+        this.john.setSpouse(this.mary);
+        this.john.addChild(this.baby);
+        this.john.addChild(this.tom);
+        this.mary.addChild(this.baby);
+        this.mary.addChild(this.tom);
+        this.baby.addSibling(this.tom);
+        this.tom.addSibling(this.baby);
+    }
+}
@@ -0,0 +1,160 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the connected-family labelling in FamilyGroups
+ */
+class FamilyGroupsTest extends FamilyFixture {
+
+    @Test
+    public void testGroups() {
+        marry();
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.baby, this.john, this.sue, this.zed});
+
+        assertEquals(6, groups.getPeopleCount());
+        assertEquals(3, groups.getGroupCount());
+        assertEquals(4, groups.getLargestGroupSize());
+        assertEquals(4, groups.getGroupSize(this.mary));
+        assertEquals(1, groups.getGroupSize(this.sue));
+        assertTrue(groups.sameFamily(this.tom, this.mary));
+        assertFalse(groups.sameFamily(this.tom, this.sue));
+        assertFalse(groups.sameFamily(this.sue, this.zed));
+    }
+
+    @Test
+    public void testUnknownPerson() {
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.sue});
+        assertEquals(-1, groups.getGroup(this.zed));
+        assertEquals(0, groups.getGroupSize(this.zed));
+        assertFalse(groups.sameFamily(this.zed, this.zed));
+        groups.add(null);
+        assertEquals(1, groups.getPeopleCount());
+    }
+
+    @Test
+    public void testAddMergesNewLinks() {
+        marry();
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.john, this.sue});
+        assertEquals(2, groups.getGroupCount());
+
+        this.sue.setSpouse(this.zed);
+        groups.add(this.sue);
+        assertTrue(groups.sameFamily(this.sue, this.zed));
+        assertEquals(2, groups.getGroupCount());
+
+        this.mary.setSpouse(this.sue);
+        groups.add(this.mary);
+        assertTrue(groups.sameFamily(this.zed, this.tom));
+        assertEquals(1, groups.getGroupCount());
+        assertEquals(6, groups.getLargestGroupSize());
+    }
+
+    @Test
+    public void testAddThroughAnotherMember() {
+        marry();
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.john});
+
+        // John gains a child, but add() is called on Mary, who only reaches him through the family
+        Child kid = new Child("Kid", 2, this.john, null);
+        this.john.addChild(kid);
+        groups.add(this.mary);
+        assertTrue(groups.sameFamily(this.mary, kid));
+        assertEquals(5, groups.getGroupSize(this.baby));
+    }
+
+    @Test
+    public void testLinkOneAtATime() {
+        FamilyGroups groups = new FamilyGroups();
+        this.john.setSpouse(this.mary);
+        groups.link(this.john, this.mary);
+        this.john.addChild(this.baby);
+        groups.link(this.john, this.baby);
+        assertEquals(3, groups.getGroupSize(this.mary));
+        assertEquals(1, groups.getGroupCount());
+
+        groups.link(this.sue, this.zed);
+        assertEquals(2, groups.getGroupCount());
+        assertFalse(groups.sameFamily(this.sue, this.tom), "Tom hasn't been linked yet");
+        groups.link(this.tom, this.baby);
+        groups.link(this.zed, this.tom);
+        assertEquals(1, groups.getGroupCount());
+        assertEquals(6, groups.getLargestGroupSize());
+        assertThrows(IllegalArgumentException.class, () -> groups.link(this.john, null));
+    }
+
+    @Test
+    public void testRemovedLinksStay() {
+        marry();
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.john});
+        this.john.setChildren(new Child[0]);
+        this.mary.setChildren(new Child[0]);
+        this.baby.setSiblings(new Child[0]);
+        groups.add(this.john);
+        assertTrue(groups.sameFamily(this.john, this.baby), "Groups only merge, they never split");
+    }
+
+    @Test
+    public void testOneSidedLinks() {
+        Child orphan = new Child("Orphan", 3, this.sue, null);
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.sue});
+        assertFalse(groups.sameFamily(this.sue, orphan), "Sue has no child link to follow");
+        groups.add(orphan);
+        assertTrue(groups.sameFamily(this.sue, orphan), "The child's parent link joins them");
+    }
+
+    @Test
+    public void testShardsKeepFamiliesTogether() {
+        marry();
+        FamilyGroups groups = new FamilyGroups(new Person[] {this.sue, this.john});
+        int sueShard = groups.getShard(this.sue, 3);
+        int johnShard = groups.getShard(this.john, 3);
+        assertEquals("Baby", groups.getFamilyName(this.john));
+        Person[] family = {this.john, this.mary, this.baby, this.tom};
+        for (int i = 0; i < family.length; i++) {
+            assertEquals(johnShard, groups.getShard(family[i], 3), family[i].getName() + " should be on John's shard");
+        }
+
+        // an unrelated family joining doesn't move anyone
+        groups.add(this.zed);
+        assertEquals(sueShard, groups.getShard(this.sue, 3));
+        assertEquals(johnShard, groups.getShard(this.tom, 3));
+
+        // once Sue marries in, the whole family shares one shard
+        this.sue.setSpouse(this.john);
+        groups.add(this.sue);
+        assertEquals("Baby", groups.getFamilyName(this.sue));
+        for (int i = 0; i < family.length; i++) {
+            assertEquals(groups.getShard(this.sue, 3), groups.getShard(family[i], 3), family[i].getName());
+        }
+        assertEquals(-1, groups.getShard(new Parent("Nobody", 1), 3));
+        assertNull(groups.getFamilyName(new Parent("Nobody", 1)));
+        assertThrows(IllegalArgumentException.class, () -> groups.getShard(this.sue, 0));
+    }
+
+    @Test
+    public void testShardsIgnoreAddOrder() {
+        marry();
+        this.sue.setSpouse(this.zed);
+        this.zed.setSpouse(this.sue);
+        FamilyGroups forward = new FamilyGroups(new Person[] {this.john, this.sue});
+        FamilyGroups backward = new FamilyGroups(new Person[] {this.zed, this.tom});
+        assertEquals(forward.getShard(this.mary, 4), backward.getShard(this.mary, 4));
+        assertEquals(forward.getShard(this.sue, 4), backward.getShard(this.sue, 4));
+    }
+
+    @Test
+    public void testEqualFamiliesSpreadAcrossShards() {
+        FamilyGroups groups = new FamilyGroups();
+        int[] perShard = new int[2];
+        for (int i = 0; i < 100; i++) {
+            Parent husband = new Parent("Husband" + i, 30);
+            Parent wife = new Parent("Wife" + i, 30, husband);
+            husband.setSpouse(wife);
+            groups.add(husband);
+            perShard[groups.getShard(wife, 2)]++;
+        }
+        assertEquals(100, groups.getGroupCount());
+        assertTrue(perShard[0] >= 25 && perShard[1] >= 25,
+                "100 couples put " + perShard[0] + " and " + perShard[1] + " families on 2 shards");
+    }
+}
@@ -0,0 +1,165 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Tests for getArea/getVolume and the Notes batch converters
+ */
+class NotesTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ByteArrayOutputStream errors = new ByteArrayOutputStream();
+
+    /**
+     * Runs convertCsv over the given bytes, once as one chunk and once cut into tiny chunks,
+     * and checks both give the same output and errors
+     * @param csv The input file contents
+     * @return Everything written to the output
+     */
+    protected String convertCsv(byte[] csv) throws IOException {
+        Path file = this.tempDir.resolve("input.csv");
+        Files.write(file, csv);
+        String[] outputs = new String[2];
+        String[] errors = new String[2];
+        int[] chunkSizes = {1 << 24, 3};
+        for (int i = 0; i < chunkSizes.length; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                Notes.convertCsv(in, out, new PrintStream(err, true), chunkSizes[i]);
+            } finally {
+                in.close();
+            }
+            outputs[i] = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            errors[i] = new String(err.toByteArray(), StandardCharsets.UTF_8);
+        }
+        assertEquals(outputs[0], outputs[1], "Chunk boundaries should not change the output");
+        assertEquals(errors[0], errors[1], "Chunk boundaries should not change the errors");
+        this.errors.write(errors[0].getBytes(StandardCharsets.UTF_8));
+        return outputs[0];
+    }
+
+    protected String convertCsv(String csv) throws IOException {
+        return convertCsv(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Runs convertBinary over records written as big-endian ints
+     * @param fields 2 or 3 ints per record
+     * @param trailing Extra bytes to put after the last whole record
+     * @param values The ints to write
+     * @return Everything written to the output
+     */
+    protected String convertBinary(int fields, int trailing, int... values) throws IOException {
+        Path file = this.tempDir.resolve("input.bin");
+        DataOutputStream data = new DataOutputStream(Files.newOutputStream(file));
+        for (int i = 0; i < values.length; i++) {
+            data.writeInt(values[i]);
+        }
+        for (int i = 0; i < trailing; i++) {
+            data.write(0);
+        }
+        data.close();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        FileChannel in = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            Notes.convertBinary(in, fields, out, new PrintStream(this.errors, true));
+        } finally {
+            in.close();
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    protected String errors() {
+        return new String(this.errors.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testAreaAndVolume() {
+        assertEquals(300, new Rectangle(15, 20).getArea());
+        assertEquals(6, new RectPrism(1, 2, 3).getVolume());
+        assertEquals(4900000000L, new Rectangle(70000, 70000).getArea(), "Area should not overflow an int");
+        assertEquals(343000000000000L, new RectPrism(70000, 70000, 70000).getVolume());
+        assertThrows(ArithmeticException.class,
+                () -> new RectPrism(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE).getVolume());
+    }
+
+    @Test
+    public void testCsvGoodLines() throws IOException {
+        assertEquals("12\n6\n100\n4900000000\n", convertCsv("3,4\r\n1,2,3\n\n10,10\n70000,70000"));
+        assertEquals("", errors());
+    }
+
+    @Test
+    public void testCsvBadLinesAreReported() throws IOException {
+        String out = convertCsv("1,2,3,4\n1 2,3\n-1,2\n5\n1,,2\n3,\n99999999999,1\n2147483647,2147483647,2147483647\n2,5\n");
+        assertEquals("10\n", out, "Only the last line is valid");
+        String errors = errors();
+        assertTrue(errors.contains("line 1: more than 3 numbers"), errors);
+        assertTrue(errors.contains("line 2: unexpected character ' '"), errors);
+        assertTrue(errors.contains("line 3: unexpected character '-'"), errors);
+        assertTrue(errors.contains("line 4: expected 2 or 3 numbers"), errors);
+        assertTrue(errors.contains("line 5: missing number"), errors);
+        assertTrue(errors.contains("line 6: missing number"), errors);
+        assertTrue(errors.contains("line 7: number too large"), errors);
+        assertTrue(errors.contains("line 8: volume too large"), errors);
+        assertFalse(errors.contains("line 9"), errors);
+    }
+
+    @Test
+    public void testCsvNonAsciiByte() throws IOException {
+        byte[] input = {'1', ',', (byte) 0xe9, '\n', '2', ',', '3', '\n'};
+        assertEquals("6\n", convertCsv(input), "A high byte should not end the input");
+        assertTrue(errors().contains("line 1: unexpected character"), errors());
+    }
+
+    @Test
+    public void testCsvManyChunks() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 1; i <= 2000; i++) {
+            csv.append(i).append(',').append(i % 7 + 1).append(i % 5 == 0 ? ",x\n" : "\n");
+            if (i % 5 != 0) {
+                expected.append((long) i * (i % 7 + 1)).append('\n');
+            }
+        }
+        assertEquals(expected.toString(), convertCsv(csv.toString()));
+        assertTrue(errors().startsWith("line 5: unexpected character 'x', skipped"), errors());
+        assertTrue(errors().contains("line 2000: unexpected character 'x', skipped"), errors());
+        assertEquals("", convertCsv(""));
+    }
+
+    @Test
+    public void testBinaryRecords() throws IOException {
+        assertEquals("12\n4900000000\n", convertBinary(2, 0, 3, 4, 70000, 70000));
+        assertEquals("6\n", convertBinary(3, 5, 1, 2, 3, -1, 2, 3));
+        assertTrue(errors().contains("record 2: negative dimension"), errors());
+        assertTrue(errors().contains("last 5 bytes are not a whole record"), errors());
+    }
+
+    @Test
+    public void testWriteNumber() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] digits = new byte[20];
+        Notes.writeNumber(out, 0, digits);
+        Notes.writeNumber(out, -42, digits);
+        Notes.writeNumber(out, Long.MAX_VALUE, digits);
+        Notes.writeNumber(out, Long.MIN_VALUE, digits);
+        assertEquals("0\n-42\n" + Long.MAX_VALUE + "\n" + Long.MIN_VALUE + "\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+}
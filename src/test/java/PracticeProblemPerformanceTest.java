@@ -0,0 +1,273 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.*;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation and growth-rate budgets for the operations that used to be quadratic
+ */
+class PracticeProblemPerformanceTest {
+
+    private static final int SMALL = 20000;
+    private static final int LARGE = 80000;
+
+    // bytes one add may allocate on average, including the array growth
+    private static final long BYTES_PER_ADD = 64;
+
+    // allocation may grow at most this much faster than the input (quadratic would be LARGE / SMALL)
+    private static final double MAX_GROWTH = 1.5;
+
+    /**
+     * Gets the per-thread allocation counter, skipping the test if this JVM doesn't have one
+     * @return The ThreadMXBean with allocation counting turned on
+     */
+    protected com.sun.management.ThreadMXBean allocationCounter() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "Thread allocation counters are not available");
+        com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(counter.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        counter.setThreadAllocatedMemoryEnabled(true);
+        return counter;
+    }
+
+    /**
+     * Makes children up front so building them isn't counted against the operation
+     * @param n How many children to make
+     * @return The children
+     */
+    protected Child[] makeChildren(int n) {
+        Parent father = new Parent("John", 35);
+        Parent mother = new Parent("Mary", 32, father);
+        Child[] children = new Child[n];
+        for (int i = 0; i < n; i++) {
+            children[i] = new Child("Child", 1, father, mother);
+        }
+        return children;
+    }
+
+    /**
+     * Bytes allocated by n calls to addChild on a new Parent
+     */
+    protected long addChildBytes(com.sun.management.ThreadMXBean counter, int n) {
+        Child[] children = makeChildren(n);
+        Parent parent = new Parent("John", 35);
+        long tid = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < n; i++) {
+            parent.addChild(children[i]);
+        }
+        long bytes = counter.getThreadAllocatedBytes(tid) - before;
+        assertEquals(n, parent.getChildren().length, "Every child should have been added");
+        return bytes;
+    }
+
+    /**
+     * Bytes allocated by n calls to addSibling on a new Child
+     */
+    protected long addSiblingBytes(com.sun.management.ThreadMXBean counter, int n) {
+        Child[] siblings = makeChildren(n);
+        Child child = new Child("Baby", 1, null, null);
+        long tid = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < n; i++) {
+            child.addSibling(siblings[i]);
+        }
+        long bytes = counter.getThreadAllocatedBytes(tid) - before;
+        assertEquals(n, child.getSiblings().length, "Every sibling should have been added");
+        return bytes;
+    }
+
+    /**
+     * Bytes allocated by n adds to a new Parent or Child, each followed by a read
+     * @param siblings Add siblings to a Child instead of children to a Parent
+     * @param wholeArray Read with getChildren/getSiblings instead of getChild/getSibling
+     */
+    protected long addThenReadBytes(com.sun.management.ThreadMXBean counter, int n, boolean siblings, boolean wholeArray) {
+        Child[] children = makeChildren(n);
+        Parent parent = new Parent("John", 35);
+        Child child = new Child("Baby", 1, null, null);
+        int seen = 0;
+        long tid = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < n; i++) {
+            if (siblings) {
+                child.addSibling(children[i]);
+                if (wholeArray) {
+                    seen += child.getSiblings().length;
+                } else if (child.getSibling(child.getSiblingCount() - 1) == children[i]) {
+                    seen++;
+                }
+            } else {
+                parent.addChild(children[i]);
+                if (wholeArray) {
+                    seen += parent.getChildren().length;
+                } else if (parent.getChild(parent.getChildCount() - 1) == children[i]) {
+                    seen++;
+                }
+            }
+        }
+        long bytes = counter.getThreadAllocatedBytes(tid) - before;
+        long expected = wholeArray ? (long) n * (n + 1) / 2 : n;
+        assertEquals(expected, seen, "Every read should see every child added so far");
+        return bytes;
+    }
+
+    /**
+     * Checks add-then-read runs: indexed reads must stay linear, and a whole-array read may
+     * cost at most one exact-size copy (never a trim plus a regrow on the next add)
+     */
+    protected void assertAddThenRead(String operation, boolean siblings) {
+        com.sun.management.ThreadMXBean counter = allocationCounter();
+        addThenReadBytes(counter, SMALL, siblings, false); // warm up
+
+        long small = addThenReadBytes(counter, SMALL, siblings, false);
+        long large = addThenReadBytes(counter, LARGE, siblings, false);
+        assertTrue(large <= BYTES_PER_ADD * LARGE,
+                operation + " with indexed reads allocated " + (large / LARGE) + " bytes per call, budget is " + BYTES_PER_ADD);
+        assertLinear(operation + " with indexed reads", small, large);
+
+        // an exact-size array for every read can't be linear, so budget one copy of up to
+        // 8 bytes per reference (plus a 16 byte header) for each read
+        int n = SMALL / 4;
+        long copies = addThenReadBytes(counter, n, siblings, true);
+        long budget = 8L * n * (n + 1) / 2 + 16L * n + BYTES_PER_ADD * n;
+        assertTrue(copies <= budget,
+                operation + " with whole-array reads allocated " + copies + " bytes, budget is " + budget);
+    }
+
+    /**
+     * Bytes allocated by FamilyGroups walking a chain of n spouses
+     */
+    protected long familyGroupsBytes(com.sun.management.ThreadMXBean counter, int n) {
+        Parent[] people = new Parent[n];
+        for (int i = 0; i < n; i++) {
+            people[i] = new Parent("Parent", 30);
+            if (i > 0) {
+                people[i - 1].setSpouse(people[i]);
+            }
+        }
+        long tid = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(tid);
+        FamilyGroups groups = new FamilyGroups(new Person[] {people[0]});
+        long bytes = counter.getThreadAllocatedBytes(tid) - before;
+        assertEquals(n, groups.getGroupSize(people[n - 1]), "The whole chain should be one family");
+        return bytes;
+    }
+
+    /**
+     * Bytes allocated by FamilyGroups.link as n children are added to one parent one at a time
+     */
+    protected long familyLinkBytes(com.sun.management.ThreadMXBean counter, int n) {
+        Child[] children = makeChildren(n);
+        Parent parent = new Parent("John", 35);
+        FamilyGroups groups = new FamilyGroups();
+        long tid = Thread.currentThread().getId();
+        long before = counter.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < n; i++) {
+            parent.addChild(children[i]);
+            groups.link(parent, children[i]);
+        }
+        long bytes = counter.getThreadAllocatedBytes(tid) - before;
+        assertEquals(n + 1, groups.getGroupSize(children[0]), "Every child should be in the family");
+        return bytes;
+    }
+
+    /**
+     * Fails if allocation grows faster than linearly between SMALL and LARGE
+     */
+    protected void assertLinear(String operation, long smallBytes, long largeBytes) {
+        double inputGrowth = (double) LARGE / SMALL;
+        double allocationGrowth = (double) largeBytes / Math.max(1, smallBytes);
+        assertTrue(allocationGrowth <= inputGrowth * MAX_GROWTH,
+                operation + " allocation grew " + allocationGrowth + "x for " + inputGrowth + "x more input");
+    }
+
+    @Test
+    public void testAddChildAllocation() {
+        com.sun.management.ThreadMXBean counter = allocationCounter();
+        addChildBytes(counter, SMALL); // warm up
+
+        long small = addChildBytes(counter, SMALL);
+        long large = addChildBytes(counter, LARGE);
+        assertTrue(large <= BYTES_PER_ADD * LARGE,
+                "addChild allocated " + (large / LARGE) + " bytes per call, budget is " + BYTES_PER_ADD);
+        assertLinear("addChild", small, large);
+    }
+
+    @Test
+    public void testAddSiblingAllocation() {
+        com.sun.management.ThreadMXBean counter = allocationCounter();
+        addSiblingBytes(counter, SMALL); // warm up
+
+        long small = addSiblingBytes(counter, SMALL);
+        long large = addSiblingBytes(counter, LARGE);
+        assertTrue(large <= BYTES_PER_ADD * LARGE,
+                "addSibling allocated " + (large / LARGE) + " bytes per call, budget is " + BYTES_PER_ADD);
+        assertLinear("addSibling", small, large);
+    }
+
+    @Test
+    public void testAddChildThenRead() {
+        assertAddThenRead("addChild", false);
+    }
+
+    @Test
+    public void testAddSiblingThenRead() {
+        assertAddThenRead("addSibling", true);
+    }
+
+    @Test
+    public void testGetChildrenOnlyCopiesSpareRoom() {
+        com.sun.management.ThreadMXBean counter = allocationCounter();
+        // 1024 fills the doubled array exactly, so getChildren can hand it out as it is
+        Child[] children = makeChildren(1024);
+        Parent parent = new Parent("John", 35);
+        for (int i = 0; i < children.length; i++) {
+            parent.addChild(children[i]);
+        }
+        Child[] first = parent.getChildren();
+
+        long tid = Thread.currentThread().getId();
+        int copies = 0;
+        long before = counter.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 1000; i++) {
+            if (parent.getChildren() != first) {
+                copies++;
+            }
+        }
+        long bytes = counter.getThreadAllocatedBytes(tid) - before;
+        assertEquals(0, copies, "A full children array should be returned without copying");
+        // one copy of a 1024 child array is about 4KB, 1000 calls together must stay under that
+        assertTrue(bytes < 4000, "Repeated getChildren calls allocated " + bytes + " bytes");
+
+        // with spare room each call gets its own copy, and writing to it changes nothing
+        parent.addChild(children[0]);
+        Child[] copy = parent.getChildren();
+        assertEquals(1025, copy.length);
+        assertNotSame(copy, parent.getChildren());
+        copy[0] = null;
+        assertSame(children[0], parent.getChild(0));
+        assertSame(children[0], parent.getChildren()[0]);
+    }
+
+    @Test
+    public void testFamilyGroupsTraversal() {
+        com.sun.management.ThreadMXBean counter = allocationCounter();
+        familyGroupsBytes(counter, SMALL); // warm up
+
+        long small = familyGroupsBytes(counter, SMALL);
+        long large = familyGroupsBytes(counter, LARGE);
+        assertLinear("FamilyGroups", small, large);
+    }
+
+    @Test
+    public void testFamilyGroupsLink() {
+        com.sun.management.ThreadMXBean counter = allocationCounter();
+        familyLinkBytes(counter, SMALL); // warm up
+
+        long small = familyLinkBytes(counter, SMALL);
+        long large = familyLinkBytes(counter, LARGE);
+        assertLinear("FamilyGroups.link", small, large);
+    }
+}
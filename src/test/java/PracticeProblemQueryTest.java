@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Tests for the family queries and query server in PracticeProblem
+ */
+class PracticeProblemQueryTest {
+
+    private static final String FAMILY =
+            "parent,John,35,Mary\n"
+            + "parent,Mary,32,John\n"
+            + "parent,Sue,40\n"
+            + "child,Baby,1,John,Mary\n"
+            + "child,Tom,5,John,Mary\n"
+            + "child,Ann,7,Sue,John\n"
+            + "parent,Zed,50\n";
+
+    /**
+     * Loads the test family
+     * @return The people by name
+     */
+    protected Map<String, Person> family() throws IOException {
+        return PracticeProblem.load(new BufferedReader(new StringReader(FAMILY)));
+    }
+
+    /**
+     * Reads a whole response from the query server
+     * @param connection The open connection
+     * @return The status code and body
+     */
+    protected String read(HttpURLConnection connection) throws IOException {
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        StringBuilder body = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            body.append(line);
+        }
+        reader.close();
+        return status + " " + body;
+    }
+
+    @Test
+    public void testSampleFamilyQueries() {
+        Map<String, Person> people = PracticeProblem.sampleFamily();
+        assertEquals(Arrays.asList("Baby", "Tom"), PracticeProblem.query(people, "children", "John"));
+        assertEquals(Arrays.asList("Tom"), PracticeProblem.query(people, "siblings", "Baby"));
+        assertEquals(Arrays.asList("John", "Mary"), PracticeProblem.query(people, "parents", "Baby"));
+        assertEquals(Arrays.asList("John"), PracticeProblem.query(people, "spouse", "Mary"));
+        assertEquals(Arrays.asList("Tom 5"), PracticeProblem.query(people, "person", "Tom"));
+        assertEquals(Collections.emptyList(), PracticeProblem.query(people, "children", "Tom"),
+                "A child has no children");
+        assertEquals(Collections.emptyList(), PracticeProblem.query(people, "ancestors", "John"),
+                "A parent has no parent links");
+    }
+
+    @Test
+    public void testBadQueries() {
+        Map<String, Person> people = PracticeProblem.sampleFamily();
+        UnknownPersonException unknown = assertThrows(UnknownPersonException.class,
+                () -> PracticeProblem.query(people, "children", "Nobody"));
+        assertEquals("Nobody", unknown.getName());
+        assertThrows(UnknownPersonException.class, () -> PracticeProblem.query(people, "kinship", "John", "Nobody"));
+        assertThrows(IllegalArgumentException.class, () -> PracticeProblem.query(people, "bogus", "John"));
+        assertThrows(IllegalArgumentException.class, () -> PracticeProblem.query(people, "kinship", "John"));
+    }
+
+    @Test
+    public void testLoad() throws IOException {
+        Map<String, Person> people = family();
+        assertEquals(7, people.size());
+        assertEquals(Arrays.asList("Baby", "Tom", "Ann"), PracticeProblem.query(people, "children", "John"));
+        assertEquals(Arrays.asList("Baby", "Tom"), PracticeProblem.query(people, "siblings", "Ann"));
+        assertEquals(Arrays.asList("Mary"), PracticeProblem.query(people, "spouse", "John"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PracticeProblem.load(new BufferedReader(new StringReader("child,Kid,3,Ghost,\n"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PracticeProblem.load(new BufferedReader(new StringReader("parent,A,x\n"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> PracticeProblem.load(new BufferedReader(new StringReader("parent,A,1\nparent,A,2\n"))));
+    }
+
+    @Test
+    public void testAncestorsAndKinship() throws IOException {
+        Map<String, Person> people = family();
+        assertEquals(Arrays.asList("Sue", "John"), PracticeProblem.query(people, "ancestors", "Ann"));
+
+        assertEquals(Arrays.asList("self"), PracticeProblem.query(people, "kinship", "Tom", "Tom"));
+        assertEquals(Arrays.asList("spouse"), PracticeProblem.query(people, "kinship", "John", "Mary"));
+        assertEquals(Arrays.asList("parent"), PracticeProblem.query(people, "kinship", "John", "Ann"));
+        assertEquals(Arrays.asList("child"), PracticeProblem.query(people, "kinship", "Ann", "Sue"));
+        assertEquals(Arrays.asList("sibling"), PracticeProblem.query(people, "kinship", "Baby", "Tom"));
+        assertEquals(Arrays.asList("half-sibling"), PracticeProblem.query(people, "kinship", "Tom", "Ann"));
+        assertEquals(Arrays.asList("co-parent"), PracticeProblem.query(people, "kinship", "Sue", "John"));
+        assertEquals(Arrays.asList("related"), PracticeProblem.query(people, "kinship", "Sue", "Mary"));
+        assertEquals(Arrays.asList("not related"), PracticeProblem.query(people, "kinship", "Zed", "Tom"));
+    }
+
+    @Test
+    public void testServer() throws IOException {
+        HttpServer server = PracticeProblem.startServer(family(), 0, 2);
+        try {
+            String base = "http://localhost:" + server.getAddress().getPort() + "/query?";
+            assertEquals("200 {\"result\":[\"Baby\",\"Tom\",\"Ann\"]}",
+                    read((HttpURLConnection) new URL(base + "type=children&name=John").openConnection()));
+            assertEquals("200 {\"result\":[\"half-sibling\"]}",
+                    read((HttpURLConnection) new URL(base + "type=kinship&name=Tom&other=Ann").openConnection()));
+            assertEquals("404 {\"error\":\"no person named No One\"}",
+                    read((HttpURLConnection) new URL(base + "type=children&name=No+One").openConnection()));
+            assertEquals("404 {\"error\":\"no person named \\\"A\\nB\\\"\"}",
+                    read((HttpURLConnection) new URL(base + "type=children&name=%22A%0AB%22").openConnection()),
+                    "Errors use the same JSON escapes as FamilyExporter");
+            assertTrue(read((HttpURLConnection) new URL(base + "type=children").openConnection()).startsWith("400 "));
+        } finally {
+            PracticeProblem.stopServer(server, 0);
+        }
+        assertTrue(((ExecutorService) server.getExecutor()).isShutdown(), "Stopping the server should stop its pool");
+    }
+}